@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : BarrettContext.java
+ ******************************************************************************/
+import java.math.BigInteger;
+
+/*******************************************************************************
+ * CLASS BarrettContext
+ * -----------------------------------------------------------------------------
+ * This class holds the precomputed values needed to reduce integers modulo a
+ * fixed modulus with Barrett reduction. Reduction then costs two multiplies
+ * and a shift instead of a long division. The context never changes once
+ * built, so one instance can be cached per modulus and shared freely.
+ ******************************************************************************/
+public class BarrettContext {
+
+	private final BigInt modulus;
+	private final BigInteger mu;
+	private final int k;
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * @param modulus : positive modulus to reduce by
+	 **************************************************************************/
+	public BarrettContext(BigInt modulus) {
+		if (!modulus.isPositive())
+			throw new ArithmeticException("Modulus must be positive!");
+
+		this.modulus = modulus;
+		this.k       = modulus.bitLength();
+		this.mu      = BigInteger.ONE.shiftLeft(2 * k).divide(modulus);
+	}
+
+	/***************************************************************************
+	 * METHOD reduce
+	 * -------------------------------------------------------------------------
+	 * Reduces x modulo the modulus. x must lie in [0, modulus^2), which
+	 * covers the product of any two reduced values. The estimated quotient
+	 * is at most two short, so at most two corrective subtractions are made.
+	 **************************************************************************/
+	public BigInteger reduce(BigInteger x) {
+		BigInteger q = x.shiftRight(k - 1).multiply(mu).shiftRight(k + 1);
+		BigInteger r = x.subtract(q.multiply(modulus));
+
+		while (r.compareTo(modulus) >= 0)
+			r = r.subtract(modulus);
+
+		return r;
+	}
+
+	/***************************************************************************
+	 * METHOD getModulus
+	 * -------------------------------------------------------------------------
+	 * Returns the modulus of the context.
+	 **************************************************************************/
+	public BigInt getModulus() {
+		return modulus;
+	}
+}
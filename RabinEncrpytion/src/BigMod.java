@@ -81,6 +81,17 @@ public class BigMod {
         mantissa = mantissa.mod(modulus);
     }
     
+    /***************************************************************************
+     * METHOD square
+     * -------------------------------------------------------------------------
+     * Squares the mantissa, reducing with the given Barrett context instead
+     *    of a long division. The context must be built for this modulus;
+     *    that is not checked here, so the caller has to guarantee it.
+     **************************************************************************/
+    public void square(BarrettContext context) {
+    	mantissa = new BigInt(context.reduce(mantissa.pow(2)));
+    }
+    
     /***************************************************************************
      * METHOD inverse
      * -------------------------------------------------------------------------
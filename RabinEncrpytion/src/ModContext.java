@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : ModContext.java
+ ******************************************************************************/
+import java.math.BigInteger;
+
+/*******************************************************************************
+ * CLASS ModContext
+ * -----------------------------------------------------------------------------
+ * This class is an immutable counterpart to BigMod. It holds a modulus along
+ * with its Barrett reduction context and performs modular arithmetic on
+ * values passed in, always returning a new result in [0, modulus) and never
+ * changing any state. A context can therefore be built once per modulus,
+ * cached, and used from many threads at the same time without copying or
+ * locking. ModValue pairs a value with its context for callers who prefer
+ * an object per value.
+ ******************************************************************************/
+public final class ModContext {
+
+	private final BigInt modulus;
+	private final BarrettContext barrett;
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * @param modulus : positive modulus for every operation of the context
+	 **************************************************************************/
+	public ModContext(BigInt modulus) {
+		this.modulus = modulus;
+		this.barrett = new BarrettContext(modulus);
+	}
+
+	/***************************************************************************
+	 * METHOD valueOf
+	 * -------------------------------------------------------------------------
+	 * Returns the residue of the integer as an immutable ModValue.
+	 **************************************************************************/
+	public ModValue valueOf(BigInt n) {
+		return new ModValue(this, reduce(n));
+	}
+
+	/***************************************************************************
+	 * METHOD reduce
+	 * -------------------------------------------------------------------------
+	 * Returns the integer reduced into [0, modulus).
+	 **************************************************************************/
+	public BigInt reduce(BigInteger n) {
+		return wrap(residue(n));
+	}
+
+	/***************************************************************************
+	 * METHOD add
+	 * -------------------------------------------------------------------------
+	 * Returns a + b mod the modulus.
+	 **************************************************************************/
+	public BigInt add(BigInteger a, BigInteger b) {
+		BigInteger sum = residue(a).add(residue(b));
+
+		if (sum.compareTo(modulus) >= 0)
+			sum = sum.subtract(modulus);
+
+		return wrap(sum);
+	}
+
+	/***************************************************************************
+	 * METHOD subtract
+	 * -------------------------------------------------------------------------
+	 * Returns a - b mod the modulus.
+	 **************************************************************************/
+	public BigInt subtract(BigInteger a, BigInteger b) {
+		BigInteger diff = residue(a).subtract(residue(b));
+
+		if (diff.signum() < 0)
+			diff = diff.add(modulus);
+
+		return wrap(diff);
+	}
+
+	/***************************************************************************
+	 * METHOD negate
+	 * -------------------------------------------------------------------------
+	 * Returns -a mod the modulus.
+	 **************************************************************************/
+	public BigInt negate(BigInteger a) {
+		BigInteger r = residue(a);
+
+		return wrap(r.signum() == 0 ? r : modulus.subtract(r));
+	}
+
+	/***************************************************************************
+	 * METHOD multiply
+	 * -------------------------------------------------------------------------
+	 * Returns a * b mod the modulus.
+	 **************************************************************************/
+	public BigInt multiply(BigInteger a, BigInteger b) {
+		return wrap(barrett.reduce(residue(a).multiply(residue(b))));
+	}
+
+	/***************************************************************************
+	 * METHOD square
+	 * -------------------------------------------------------------------------
+	 * Returns a^2 mod the modulus.
+	 **************************************************************************/
+	public BigInt square(BigInteger a) {
+		return wrap(barrett.reduce(residue(a).pow(2)));
+	}
+
+	/***************************************************************************
+	 * METHOD pow
+	 * -------------------------------------------------------------------------
+	 * Returns base^pow mod the modulus by square and multiply, scanning the
+	 * exponent from its highest bit down. Every step is Barrett reduced.
+	 **************************************************************************/
+	public BigInt pow(BigInteger base, BigInteger pow) {
+		if (pow.signum() < 0)
+			throw new ArithmeticException("Negative exponent!");
+
+		BigInteger b = residue(base);
+		BigInteger result = BigInteger.ONE.mod(modulus);
+
+		for (int bit = pow.bitLength() - 1; bit >= 0; --bit) {
+			result = barrett.reduce(result.pow(2));
+
+			if (pow.testBit(bit))
+				result = barrett.reduce(result.multiply(b));
+		}
+
+		return wrap(result);
+	}
+
+	/***************************************************************************
+	 * METHOD inverse
+	 * -------------------------------------------------------------------------
+	 * Returns the inverse of a mod the modulus. An ArithmeticException is
+	 * thrown if a shares a factor with the modulus.
+	 **************************************************************************/
+	public BigInt inverse(BigInteger a) {
+		return wrap(residue(a).modInverse(modulus));
+	}
+
+	/***************************************************************************
+	 * METHOD isCongruent
+	 * -------------------------------------------------------------------------
+	 * Checks to see if two integers are congruent mod the modulus.
+	 **************************************************************************/
+	public boolean isCongruent(BigInteger a, BigInteger b) {
+		return residue(a).equals(residue(b));
+	}
+
+	/***************************************************************************
+	 * METHOD getModulus
+	 * -------------------------------------------------------------------------
+	 * Returns the modulus of the context.
+	 **************************************************************************/
+	public BigInt getModulus() {
+		return modulus;
+	}
+
+	/***************************************************************************
+	 * METHOD residue
+	 * -------------------------------------------------------------------------
+	 * Reduces an integer into [0, modulus), skipping the division when it
+	 * already lies in range.
+	 **************************************************************************/
+	private BigInteger residue(BigInteger n) {
+		if (n.signum() >= 0 && n.compareTo(modulus) < 0)
+			return n;
+
+		return n.mod(modulus);
+	}
+
+	/***************************************************************************
+	 * METHOD wrap
+	 * -------------------------------------------------------------------------
+	 * Returns the value as a BigInt, reusing it if it already is one.
+	 **************************************************************************/
+	private static BigInt wrap(BigInteger n) {
+		return n instanceof BigInt ? (BigInt) n : new BigInt(n);
+	}
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : ModValue.java
+ ******************************************************************************/
+import java.math.BigInteger;
+
+/*******************************************************************************
+ * CLASS ModValue
+ * -----------------------------------------------------------------------------
+ * This class is an immutable residue of a ModContext. Unlike BigMod, every
+ * operation leaves the receiver untouched and returns a new ModValue, so
+ * values may be cached and shared between threads. Values are created with
+ * ModContext.valueOf.
+ ******************************************************************************/
+public final class ModValue {
+
+	private final ModContext context;
+	private final BigInt mantissa;
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * @param context  : context the value belongs to
+	 * @param mantissa : value already reduced into [0, modulus)
+	 **************************************************************************/
+	ModValue(ModContext context, BigInt mantissa) {
+		this.context  = context;
+		this.mantissa = mantissa;
+	}
+
+	/***************************************************************************
+	 * METHOD add
+	 * -------------------------------------------------------------------------
+	 * Returns this value plus the addend.
+	 **************************************************************************/
+	public ModValue add(ModValue addend) {
+		checkContext(addend);
+		return new ModValue(context, context.add(mantissa, addend.mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD add
+	 * -------------------------------------------------------------------------
+	 * Returns this value plus the addend.
+	 **************************************************************************/
+	public ModValue add(BigInteger addend) {
+		return new ModValue(context, context.add(mantissa, addend));
+	}
+
+	/***************************************************************************
+	 * METHOD subtract
+	 * -------------------------------------------------------------------------
+	 * Returns this value minus the subtrahend.
+	 **************************************************************************/
+	public ModValue subtract(ModValue subtrahend) {
+		checkContext(subtrahend);
+		return new ModValue(context,
+							context.subtract(mantissa, subtrahend.mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD subtract
+	 * -------------------------------------------------------------------------
+	 * Returns this value minus the subtrahend.
+	 **************************************************************************/
+	public ModValue subtract(BigInteger subtrahend) {
+		return new ModValue(context, context.subtract(mantissa, subtrahend));
+	}
+
+	/***************************************************************************
+	 * METHOD increment
+	 * -------------------------------------------------------------------------
+	 * Returns this value plus one.
+	 **************************************************************************/
+	public ModValue increment() {
+		return add(BigInteger.ONE);
+	}
+
+	/***************************************************************************
+	 * METHOD negate
+	 * -------------------------------------------------------------------------
+	 * Returns the additive inverse of this value.
+	 **************************************************************************/
+	public ModValue negate() {
+		return new ModValue(context, context.negate(mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD multiply
+	 * -------------------------------------------------------------------------
+	 * Returns this value times the factor.
+	 **************************************************************************/
+	public ModValue multiply(ModValue factor) {
+		checkContext(factor);
+		return new ModValue(context,
+							context.multiply(mantissa, factor.mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD multiply
+	 * -------------------------------------------------------------------------
+	 * Returns this value times the factor.
+	 **************************************************************************/
+	public ModValue multiply(BigInteger factor) {
+		return new ModValue(context, context.multiply(mantissa, factor));
+	}
+
+	/***************************************************************************
+	 * METHOD square
+	 * -------------------------------------------------------------------------
+	 * Returns this value squared.
+	 **************************************************************************/
+	public ModValue square() {
+		return new ModValue(context, context.square(mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD fastPow
+	 * -------------------------------------------------------------------------
+	 * Returns this value to the power passed in.
+	 **************************************************************************/
+	public ModValue fastPow(BigInteger pow) {
+		return new ModValue(context, context.pow(mantissa, pow));
+	}
+
+	/***************************************************************************
+	 * METHOD inverse
+	 * -------------------------------------------------------------------------
+	 * Returns the multiplicative inverse of this value.
+	 **************************************************************************/
+	public ModValue inverse() {
+		return new ModValue(context, context.inverse(mantissa));
+	}
+
+	/***************************************************************************
+	 * METHOD isCongruent
+	 * -------------------------------------------------------------------------
+	 * Checks to see if an integer is congruent to this value.
+	 **************************************************************************/
+	public boolean isCongruent(BigInteger a) {
+		return context.isCongruent(mantissa, a);
+	}
+
+	/***************************************************************************
+	 * METHOD getMantissa
+	 * -------------------------------------------------------------------------
+	 * Returns the mantissa of the value.
+	 **************************************************************************/
+	public BigInt getMantissa() {
+		return mantissa;
+	}
+
+	/***************************************************************************
+	 * METHOD getModulus
+	 * -------------------------------------------------------------------------
+	 * Returns the modulus of the value.
+	 **************************************************************************/
+	public BigInt getModulus() {
+		return context.getModulus();
+	}
+
+	/***************************************************************************
+	 * METHOD getContext
+	 * -------------------------------------------------------------------------
+	 * Returns the context the value belongs to.
+	 **************************************************************************/
+	public ModContext getContext() {
+		return context;
+	}
+
+	/***************************************************************************
+	 * METHOD checkContext
+	 * -------------------------------------------------------------------------
+	 * Makes sure the other value is taken mod the same modulus.
+	 **************************************************************************/
+	private void checkContext(ModValue other) throws ArithmeticException {
+		if (other.context != context
+				&& other.getModulus().compareTo(getModulus()) != 0)
+			throw new ArithmeticException("Modules do not match!");
+	}
+
+	/***************************************************************************
+	 * METHOD equals
+	 * -------------------------------------------------------------------------
+	 * Checks to see if another ModValue has the same mantissa and modulus.
+	 **************************************************************************/
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof ModValue))
+			return false;
+
+		ModValue value = (ModValue) other;
+
+		return value.mantissa.compareTo(mantissa) == 0
+			&& value.getModulus().compareTo(getModulus()) == 0;
+	}
+
+	/***************************************************************************
+	 * METHOD hashCode
+	 * -------------------------------------------------------------------------
+	 * Returns a hash code consistent with equals.
+	 **************************************************************************/
+	@Override
+	public int hashCode() {
+		return 31 * mantissa.hashCode() + getModulus().hashCode();
+	}
+
+	/***************************************************************************
+	 * METHOD toString
+	 * -------------------------------------------------------------------------
+	 * Returns string representation of mantissa and modulus.
+	 **************************************************************************/
+	public String toString() {
+		return ("\nMantissa : " + getMantissa()
+			  + "\nModulus  : " + getModulus() + "\n");
+	}
+}
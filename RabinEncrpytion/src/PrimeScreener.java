@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : PrimeScreener.java
+ ******************************************************************************/
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/*******************************************************************************
+ * CLASS PrimeScreener
+ * -----------------------------------------------------------------------------
+ * This class screens a whole batch of prime candidates for small factors at
+ * once. A product tree is built over the candidates and the primorial of all
+ * primes below a bound is pushed down it as a remainder tree, leaving each
+ * candidate with the primorial reduced modulo itself. A candidate with no
+ * small factor has a gcd of 1 with that remainder. Only the survivors need
+ * to be handed to the Miller-Rabin test. The screener never changes once
+ * built, so one instance can be shared between threads.
+ ******************************************************************************/
+public class PrimeScreener {
+
+	private final BigInteger bound;
+	private final BigInteger primorial;
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * @param bound : every prime below this bound is a screening factor
+	 **************************************************************************/
+	public PrimeScreener(int bound) {
+		if (bound < 3)
+			throw new IllegalArgumentException("Bound must be at least 3!");
+
+		this.bound     = BigInteger.valueOf(bound);
+		this.primorial = productTree(smallPrimes(bound)).get(0)[0];
+	}
+
+	/***************************************************************************
+	 * METHOD screen
+	 * -------------------------------------------------------------------------
+	 * Returns the candidates which have no prime factor below the bound, in
+	 * their original order. Candidates which are not above the bound are
+	 * kept as well, since they may be one of the screening primes themselves.
+	 **************************************************************************/
+	public List<BigInt> screen(List<BigInt> candidates) {
+		List<BigInt> survivors = new ArrayList<BigInt>();
+		List<BigInt> positive = new ArrayList<BigInt>();
+		BigInteger[] remainders;
+
+		for (BigInt candidate : candidates)
+			if (candidate.isPositive())
+				positive.add(candidate);
+
+		if (positive.isEmpty())
+			return survivors;
+
+		remainders = remainderTree(productTree(positive));
+
+		for (int i = 0; i < positive.size(); ++i) {
+			BigInt candidate = positive.get(i);
+
+			if (candidate.compareTo(bound) <= 0
+					|| candidate.gcd(remainders[i]).equals(BigInteger.ONE))
+				survivors.add(candidate);
+		}
+
+		return survivors;
+	}
+
+	/***************************************************************************
+	 * METHOD productTree
+	 * -------------------------------------------------------------------------
+	 * Builds the product tree bottom up. Level 0 of the returned list is the
+	 * root, holding the product of every leaf; the last level is the leaves.
+	 * Each node is the product of its two children, an odd node out is
+	 * carried up unchanged.
+	 **************************************************************************/
+	private static List<BigInteger[]> productTree(
+			List<? extends BigInteger> leaves) {
+		List<BigInteger[]> tree = new ArrayList<BigInteger[]>();
+		BigInteger[] level = leaves.toArray(new BigInteger[leaves.size()]);
+
+		tree.add(level);
+
+		while (level.length > 1) {
+			BigInteger[] parent = new BigInteger[(level.length + 1) / 2];
+
+			for (int i = 0; i < parent.length; ++i)
+				parent[i] = 2 * i + 1 < level.length
+						  ? level[2 * i].multiply(level[2 * i + 1])
+						  : level[2 * i];
+
+			tree.add(0, parent);
+			level = parent;
+		}
+
+		return tree;
+	}
+
+	/***************************************************************************
+	 * METHOD remainderTree
+	 * -------------------------------------------------------------------------
+	 * Pushes the primorial down the product tree, reducing it modulo each
+	 * node on the way, and returns its remainder modulo every leaf.
+	 **************************************************************************/
+	private BigInteger[] remainderTree(List<BigInteger[]> tree) {
+		BigInteger[] remainders = { primorial.mod(tree.get(0)[0]) };
+
+		for (int depth = 1; depth < tree.size(); ++depth) {
+			BigInteger[] level = tree.get(depth);
+			BigInteger[] next = new BigInteger[level.length];
+
+			for (int i = 0; i < level.length; ++i)
+				next[i] = remainders[i / 2].mod(level[i]);
+
+			remainders = next;
+		}
+
+		return remainders;
+	}
+
+	/***************************************************************************
+	 * METHOD smallPrimes
+	 * -------------------------------------------------------------------------
+	 * Lists every prime below the bound using the sieve of Eratosthenes.
+	 **************************************************************************/
+	private static List<BigInteger> smallPrimes(int bound) {
+		boolean[] composite = new boolean[bound];
+		List<BigInteger> primes = new ArrayList<BigInteger>();
+
+		for (int i = 2; i < bound; ++i) {
+			if (composite[i])
+				continue;
+
+			primes.add(BigInteger.valueOf(i));
+
+			for (long j = (long) i * i; j < bound; j += i)
+				composite[(int) j] = true;
+		}
+
+		return primes;
+	}
+}
@@ -4,6 +4,12 @@
  * FILE       : RabinCrypto.java
  ******************************************************************************/
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 /*******************************************************************************
  * CLASS
@@ -17,9 +23,35 @@ public class RabinCrypto {
 	/***************************************************************************
 	 * CONSTANTS
 	 * -------------------------------------------------------------------------
-	 * PRIME_LENGTH : Bit length of prime number to be generated
+	 * PRIME_LENGTH      : Bit length of prime number to be generated
+	 * SCREEN_BATCH_SIZE : Number of candidates screened together
+	 * SCREEN_BOUND      : Candidates with a prime factor below this bound are
+	 *                     discarded before the Miller-Rabin test
 	 **************************************************************************/
 	private static final int PRIME_LENGTH = 20;
+	private static final int SCREEN_BATCH_SIZE = 256;
+	private static final int SCREEN_BOUND = 1024;
+	
+	private static final PrimeScreener screener =
+		new PrimeScreener(SCREEN_BOUND);
+	
+	/***************************************************************************
+	 * CACHE
+	 * -------------------------------------------------------------------------
+	 * BARRETT_CACHE_SIZE : Number of public keys whose Barrett contexts are
+	 *                      kept, least recently used keys are dropped first
+	 **************************************************************************/
+	private static final int BARRETT_CACHE_SIZE = 16;
+	
+	private static final Map<BigInt, BarrettContext> barrettCache =
+		Collections.synchronizedMap(
+			new LinkedHashMap<BigInt, BarrettContext>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<BigInt, BarrettContext> eldest) {
+					return size() > BARRETT_CACHE_SIZE;
+				}
+			});
 	
 	/***************************************************************************
 	 * METHOD generateKey
@@ -30,30 +62,76 @@ public class RabinCrypto {
 	 * of being congruent to 3 mod 4. 
 	 **************************************************************************/
 	public static RabinPrivateKeyPair generateKey() {
-		BigInt p     = new BigInt(0);
-		BigInt q     = new BigInt(0);
-		BigInt three = new BigInt(3);
-		BigInt four  = new BigInt(4);
-		BigMod pMod;
-		BigMod qMod;
-		
-		// GENERATE - random prime p congruent to 3 mod 4
-		do {
-			p = p.random(PRIME_LENGTH);
-			pMod = new BigMod(p, four);
-		} while (!p.isPrime() || !pMod.isCongruent(three));
-		
-		// GENERATE - random prime q congruent to 3 mod 4
-		do {
-			q = q.random(PRIME_LENGTH);
-			qMod = new BigMod(q, four);
-		} while (!q.isPrime() || !qMod.isCongruent(three));
-		
-		RabinPrivateKeyPair keyPair = new RabinPrivateKeyPair(p,q);
+		return generateKey(() -> false);
+	}
+	
+	/***************************************************************************
+	 * METHOD generateKey
+	 * -------------------------------------------------------------------------
+	 * This method generates a key pair as above, but polls the given check
+	 * between candidates and gives up with a CancellationException once it
+	 * returns true. It is used by RabinCryptoAsync so that key generation on
+	 * a worker thread can be cancelled.
+	 **************************************************************************/
+	static RabinPrivateKeyPair generateKey(BooleanSupplier cancelled) {
+		ArrayList<BigInt> primes;
+		
+		// GENERATE - two distinct random primes p and q congruent to 3 mod 4
+		primes = generatePrimes(2, cancelled);
+		
+		RabinPrivateKeyPair keyPair =
+			new RabinPrivateKeyPair(primes.get(0), primes.get(1));
 		
 		return keyPair;
 	}
 	
+	/***************************************************************************
+	 * METHOD generatePrimes
+	 * -------------------------------------------------------------------------
+	 * This method searches for distinct random primes of PRIME_LENGTH bits
+	 * which are congruent to 3 mod 4. Candidates are drawn a batch at a time
+	 * and screened for small factors together, so only the survivors are
+	 * put through the Miller-Rabin test. The search gives up with a
+	 * CancellationException once the cancellation check returns true.
+	 **************************************************************************/
+	private static ArrayList<BigInt> generatePrimes(int count,
+													BooleanSupplier cancelled) {
+		ArrayList<BigInt> primes = new ArrayList<BigInt>();
+		
+		while (primes.size() < count) {
+			for (BigInt candidate : screener.screen(randomCandidates())) {
+				if (cancelled.getAsBoolean())
+					throw new CancellationException("Key generation cancelled");
+				
+				if (candidate.isPrime() && !primes.contains(candidate)) {
+					primes.add(candidate);
+					
+					if (primes.size() == count)
+						break;
+				}
+			}
+		}
+		
+		return primes;
+	}
+	
+	/***************************************************************************
+	 * METHOD randomCandidates
+	 * -------------------------------------------------------------------------
+	 * This method draws a batch of random candidates of PRIME_LENGTH bits.
+	 * The two low bits of each are set, making it congruent to 3 mod 4.
+	 **************************************************************************/
+	private static List<BigInt> randomCandidates() {
+		List<BigInt> candidates = new ArrayList<BigInt>();
+		BigInt random = new BigInt(0);
+		
+		for (int i = 0; i < SCREEN_BATCH_SIZE; ++i)
+			candidates.add(new BigInt(random.random(PRIME_LENGTH)
+					.setBit(0).setBit(1)));
+		
+		return candidates;
+	}
+	
 	/***************************************************************************
 	 * METHOD encrypt
 	 * -------------------------------------------------------------------------
@@ -65,12 +143,52 @@ public class RabinCrypto {
 		BigMod cipherMod = new BigMod(message, publicKey);
 		
 		// CALC - compute cipher text
-		cipherMod.fastPow(new BigInt(2));
+		cipherMod.square(barrettContext(publicKey));
 		cipherText = cipherMod.getMantissa();
 		
 		return cipherText;
 	}
 	
+	/***************************************************************************
+	 * METHOD encrypt
+	 * -------------------------------------------------------------------------
+	 * This method will encrypt a batch of integer messages with the public
+	 * key provided. The Barrett context for the key is looked up once and
+	 * reused for every message. The ciphertexts are returned in the same
+	 * order as the messages were given.
+	 **************************************************************************/
+	public static ArrayList<BigInt> encrypt(List<BigInt> messages,
+											BigInt publicKey) {
+		BarrettContext context = barrettContext(publicKey);
+		ArrayList<BigInt> cipherTexts = new ArrayList<BigInt>();
+		
+		for (BigInt message : messages) {
+			BigMod cipherMod = new BigMod(message, publicKey);
+			
+			cipherMod.square(context);
+			cipherTexts.add(cipherMod.getMantissa());
+		}
+		
+		return cipherTexts;
+	}
+	
+	/***************************************************************************
+	 * METHOD barrettContext
+	 * -------------------------------------------------------------------------
+	 * This method returns the cached Barrett context for the public key,
+	 * building and caching a new one if the key has not been seen recently.
+	 **************************************************************************/
+	private static BarrettContext barrettContext(BigInt publicKey) {
+		BarrettContext context = barrettCache.get(publicKey);
+		
+		if (context == null) {
+			context = new BarrettContext(publicKey);
+			barrettCache.put(publicKey, context);
+		}
+		
+		return context;
+	}
+	
 	/***************************************************************************
 	 * METHOD decrypt
 	 * -------------------------------------------------------------------------
@@ -80,62 +198,76 @@ public class RabinCrypto {
 	 **************************************************************************/
 	public static ArrayList<BigInt> decrypt(BigInt cipherText,
 											RabinPrivateKeyPair keyPair) {
+		return decrypt(Collections.singletonList(cipherText), keyPair).get(0);
+	}
+	
+	/***************************************************************************
+	 * METHOD decrypt
+	 * -------------------------------------------------------------------------
+	 * This method will decrypt a batch of ciphertexts which were all
+	 * encrypted under the same key pair. The modulus contexts, root exponents
+	 * and CRT coefficients only depend on the key pair, so they are computed
+	 * once and reused for every ciphertext. The four roots of each ciphertext
+	 * are returned in the same order as the ciphertexts were given.
+	 **************************************************************************/
+	public static ArrayList<ArrayList<BigInt>> decrypt(List<BigInt> cipherTexts,
+											RabinPrivateKeyPair keyPair) {
 		BigInt p;
 		BigInt q;
-		BigInt n;
 		BigInt powP;
 		BigInt powQ;
-		BigInt eucP;
-		BigInt eucQ;
-		BigInt chineseSum;
-		BigInt chineseDiff;
-		BigInt chineseProductP;
-		BigInt chineseProductQ;
-		BigMod rootModP;
-		BigMod rootModQ;
-		BigMod posSumRoot;
-		BigMod negSumRoot;
-		BigMod posDiffRoot;
-		BigMod negDiffRoot;
+		BigInt crtP;
+		BigInt crtQ;
+		ModContext modP;
+		ModContext modQ;
+		ModContext modN;
 		BigIntPair eucPair;
-		ArrayList<BigInt> rootsModN = new ArrayList<BigInt>();
+		ArrayList<ArrayList<BigInt>> roots = new ArrayList<ArrayList<BigInt>>();
 		
 		p = keyPair.getP();
 		q = keyPair.getQ();
-		n = p.multiply(q);
+		modP = new ModContext(p);
+		modQ = new ModContext(q);
+		modN = new ModContext(p.multiply(q));
 		
-		// CALC - coefficients for CRT using extended Euclidean algorithm
+		// CALC - key dependent values shared by the whole batch
 		eucPair = RabinCrypto.euclidX(p, q);
-		eucP = eucPair.x;
-		eucQ = eucPair.y;
-		
-		// CALC - compute root mod P
+		crtP = modN.reduce(eucPair.x.multiply(p));
+		crtQ = modN.reduce(eucPair.y.multiply(q));
 		powP = new BigInt(p.add(1).divide(4));
-		rootModP = new BigMod(cipherText, p);
-		rootModP.fastPow(powP);
-		
-		// CALC - compute root mod Q
 		powQ = new BigInt(q.add(1).divide(4));
-		rootModQ = new BigMod(cipherText, q);
-		rootModQ.fastPow(powQ);
 		
-		// CALC - chinese remainder theorem to find roots mod N
-		chineseProductP = eucP.multiply(p).multiply(rootModQ.getMantissa());
-		chineseProductQ = eucQ.multiply(q).multiply(rootModP.getMantissa());
+		for (BigInt cipherText : cipherTexts) {
+			BigInt rootModP = modP.pow(cipherText, powP);
+			BigInt rootModQ = modQ.pow(cipherText, powQ);
+			
+			roots.add(combineRoots(modN, modN.multiply(crtP, rootModQ),
+								   modN.multiply(crtQ, rootModP)));
+		}
 		
-		chineseSum = chineseProductP.add(chineseProductQ);
-		chineseDiff = chineseProductP.subtract(chineseProductQ);
+		return roots;
+	}
+	
+	/***************************************************************************
+	 * METHOD combineRoots
+	 * -------------------------------------------------------------------------
+	 * This method uses the chinese remainder theorem to combine the two CRT
+	 * products into the four square roots mod n.
+	 **************************************************************************/
+	private static ArrayList<BigInt> combineRoots(ModContext modN,
+			BigInt chineseProductP, BigInt chineseProductQ) {
+		BigInt sumRoot;
+		BigInt diffRoot;
+		ArrayList<BigInt> rootsModN = new ArrayList<BigInt>();
 		
-		posSumRoot = new BigMod(chineseSum, n);
-		negSumRoot = new BigMod(posSumRoot.getMantissa().multiply(-1), n);
-		posDiffRoot = new BigMod(chineseDiff, n);
-		negDiffRoot = new BigMod(posDiffRoot.getMantissa().multiply(-1), n);
+		sumRoot  = modN.add(chineseProductP, chineseProductQ);
+		diffRoot = modN.subtract(chineseProductP, chineseProductQ);
 		
 		// ADD - all roots mod N to be returned
-		rootsModN.add(posSumRoot.getMantissa());
-		rootsModN.add(negSumRoot.getMantissa());
-		rootsModN.add(posDiffRoot.getMantissa());
-		rootsModN.add(negDiffRoot.getMantissa());
+		rootsModN.add(sumRoot);
+		rootsModN.add(modN.negate(sumRoot));
+		rootsModN.add(diffRoot);
+		rootsModN.add(modN.negate(diffRoot));
 		
 		return rootsModN;
 	}
@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : RabinCryptoAsync.java
+ ******************************************************************************/
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*******************************************************************************
+ * CLASS RabinCryptoAsync
+ * -----------------------------------------------------------------------------
+ * This class wraps the blocking RabinCrypto entry points so that they run on
+ * a dedicated pool of worker threads and hand back a CompletableFuture
+ * instead of blocking the caller. The number of outstanding requests is
+ * capped; once the cap is reached every entry point throws a
+ * RejectedExecutionException so callers can apply backpressure. Decrypt
+ * requests which are queued against the same key pair are drained together
+ * as one batch so the key dependent values are computed only once.
+ *
+ * Callbacks attached with the non-async CompletableFuture methods run on the
+ * worker thread which completes the future.
+ ******************************************************************************/
+public class RabinCryptoAsync {
+
+	/***************************************************************************
+	 * CONSTANTS
+	 * -------------------------------------------------------------------------
+	 * DEFAULT_QUEUE_LIMIT : Outstanding requests allowed before rejecting
+	 * DEFAULT_BATCH_LIMIT : Most decrypts drained together for one key pair
+	 **************************************************************************/
+	public static final int DEFAULT_QUEUE_LIMIT = 256;
+	public static final int DEFAULT_BATCH_LIMIT = 32;
+
+	private final ThreadPoolExecutor executor;
+	private final Semaphore permits;
+	private final int batchLimit;
+	private final Map<RabinPrivateKeyPair, LinkedList<PendingDecrypt>> pending;
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * Uses one worker per available processor and the default limits.
+	 **************************************************************************/
+	public RabinCryptoAsync() {
+		this(Runtime.getRuntime().availableProcessors(),
+			 DEFAULT_QUEUE_LIMIT, DEFAULT_BATCH_LIMIT);
+	}
+
+	/***************************************************************************
+	 * CONSTRUCTOR
+	 * -------------------------------------------------------------------------
+	 * @param threads    : number of worker threads
+	 * @param queueLimit : outstanding requests allowed before rejecting
+	 * @param batchLimit : most decrypts for one key pair handled in one batch,
+	 *                     1 turns batching off
+	 **************************************************************************/
+	public RabinCryptoAsync(int threads, int queueLimit, int batchLimit) {
+		if (threads < 1 || queueLimit < 1 || batchLimit < 1)
+			throw new IllegalArgumentException("Limits must be positive!");
+
+		// The permits are the only bound; the executor queue never refuses
+		// work, so accepted requests are not lost to a full queue
+		this.permits    = new Semaphore(queueLimit);
+		this.batchLimit = batchLimit;
+		this.pending    =
+			new IdentityHashMap<RabinPrivateKeyPair, LinkedList<PendingDecrypt>>();
+		this.executor   = new ThreadPoolExecutor(threads, threads,
+			0L, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<Runnable>(),
+			new WorkerFactory());
+	}
+
+	/***************************************************************************
+	 * METHOD generateKey
+	 * -------------------------------------------------------------------------
+	 * Generates a key pair on a worker thread. Cancelling the returned future
+	 * with mayInterruptIfRunning set stops a key search already in progress.
+	 **************************************************************************/
+	public CompletableFuture<RabinPrivateKeyPair> generateKey() {
+		return submit(() -> RabinCrypto.generateKey(
+			() -> Thread.currentThread().isInterrupted()));
+	}
+
+	/***************************************************************************
+	 * METHOD encrypt
+	 * -------------------------------------------------------------------------
+	 * Encrypts the message with the public key on a worker thread.
+	 **************************************************************************/
+	public CompletableFuture<BigInt> encrypt(BigInt message, BigInt publicKey) {
+		return submit(() -> RabinCrypto.encrypt(message, publicKey));
+	}
+
+	/***************************************************************************
+	 * METHOD decrypt
+	 * -------------------------------------------------------------------------
+	 * Decrypts the ciphertext with the key pair on a worker thread. Requests
+	 * for the same key pair object which are waiting at the same time are
+	 * decrypted together in batches of at most batchLimit.
+	 **************************************************************************/
+	public CompletableFuture<ArrayList<BigInt>> decrypt(BigInt cipherText,
+			RabinPrivateKeyPair keyPair) {
+		PendingDecrypt request = new PendingDecrypt(cipherText, keyPair);
+
+		acquire();
+		request.whenComplete((roots, error) -> permits.release());
+
+		synchronized (pending) {
+			LinkedList<PendingDecrypt> queue = pending.get(keyPair);
+
+			if (queue != null) {
+				queue.add(request);
+				return request;
+			}
+
+			queue = new LinkedList<PendingDecrypt>();
+			queue.add(request);
+			pending.put(keyPair, queue);
+
+			// Still holding the lock, so nothing else can join this queue
+			// before its drain is known to be scheduled
+			try {
+				executor.execute(() -> drain(keyPair));
+			} catch (RejectedExecutionException e) {
+				pending.remove(keyPair);
+				request.cancel(false);
+				throw e;
+			}
+		}
+
+		return request;
+	}
+
+	/***************************************************************************
+	 * METHOD shutdown
+	 * -------------------------------------------------------------------------
+	 * Stops accepting requests. Requests already accepted still complete.
+	 **************************************************************************/
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/***************************************************************************
+	 * METHOD shutdownNow
+	 * -------------------------------------------------------------------------
+	 * Stops accepting requests, interrupts the requests in progress and
+	 * cancels every request which has not started yet.
+	 **************************************************************************/
+	public void shutdownNow() {
+		List<PendingDecrypt> waiting = new ArrayList<PendingDecrypt>();
+
+		for (Runnable task : executor.shutdownNow())
+			if (task instanceof Task)
+				((Task<?>) task).cancel(false);
+
+		synchronized (pending) {
+			for (LinkedList<PendingDecrypt> queue : pending.values())
+				waiting.addAll(queue);
+			pending.clear();
+		}
+
+		for (PendingDecrypt request : waiting)
+			request.cancel(false);
+	}
+
+	/***************************************************************************
+	 * METHOD awaitTermination
+	 * -------------------------------------------------------------------------
+	 * Blocks until all workers have finished after a shutdown.
+	 **************************************************************************/
+	public boolean awaitTermination(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	/***************************************************************************
+	 * METHOD submit
+	 * -------------------------------------------------------------------------
+	 * Runs a single request on the executor, holding one permit until the
+	 * request has completed, failed or been cancelled.
+	 **************************************************************************/
+	private <T> CompletableFuture<T> submit(Callable<T> work) {
+		Task<T> task = new Task<T>(work);
+
+		acquire();
+		task.whenComplete((result, error) -> permits.release());
+
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.cancel(false);
+			throw e;
+		}
+
+		return task;
+	}
+
+	/***************************************************************************
+	 * METHOD acquire
+	 * -------------------------------------------------------------------------
+	 * Takes a permit for a new request, rejecting it if the queue limit has
+	 * been reached or the executor has been shut down.
+	 **************************************************************************/
+	private void acquire() {
+		if (executor.isShutdown())
+			throw new RejectedExecutionException("Executor has been shut down");
+
+		if (!permits.tryAcquire())
+			throw new RejectedExecutionException("Request queue is full");
+	}
+
+	/***************************************************************************
+	 * METHOD drain
+	 * -------------------------------------------------------------------------
+	 * Decrypts one batch of waiting requests for the key pair. If more
+	 * requests are still waiting afterwards another drain is queued so other
+	 * keys get a turn. Once the executor has been shut down it takes no new
+	 * drains, so the remaining batches are decrypted here instead; requests
+	 * already accepted are never failed by the shutdown.
+	 **************************************************************************/
+	private void drain(RabinPrivateKeyPair keyPair) {
+		while (true) {
+			decryptBatch(keyPair, takeBatch(keyPair));
+
+			synchronized (pending) {
+				if (!pending.containsKey(keyPair))
+					return;
+			}
+
+			try {
+				executor.execute(() -> drain(keyPair));
+				return;
+			} catch (RejectedExecutionException e) {
+				// Shut down, keep draining on this worker
+			}
+		}
+	}
+
+	/***************************************************************************
+	 * METHOD decryptBatch
+	 * -------------------------------------------------------------------------
+	 * Decrypts the batch and completes each request with its roots, or fails
+	 * all of them if the decrypt throws.
+	 **************************************************************************/
+	private void decryptBatch(RabinPrivateKeyPair keyPair,
+							  List<PendingDecrypt> batch) {
+		List<BigInt> cipherTexts = new ArrayList<BigInt>();
+
+		if (batch.isEmpty())
+			return;
+
+		for (PendingDecrypt request : batch)
+			cipherTexts.add(request.cipherText);
+
+		try {
+			ArrayList<ArrayList<BigInt>> roots =
+				RabinCrypto.decrypt(cipherTexts, keyPair);
+
+			for (int i = 0; i < batch.size(); ++i)
+				batch.get(i).complete(roots.get(i));
+		} catch (RuntimeException e) {
+			for (PendingDecrypt request : batch)
+				request.completeExceptionally(e);
+		}
+	}
+
+	/***************************************************************************
+	 * METHOD takeBatch
+	 * -------------------------------------------------------------------------
+	 * Removes up to batchLimit live requests for the key pair from the
+	 * waiting list, dropping the list once it is empty. Requests which have
+	 * already completed are discarded along the way.
+	 **************************************************************************/
+	private List<PendingDecrypt> takeBatch(RabinPrivateKeyPair keyPair) {
+		List<PendingDecrypt> batch = new ArrayList<PendingDecrypt>();
+
+		synchronized (pending) {
+			LinkedList<PendingDecrypt> queue = pending.get(keyPair);
+
+			if (queue == null)
+				return batch;
+
+			Iterator<PendingDecrypt> it = queue.iterator();
+			while (it.hasNext() && batch.size() < batchLimit) {
+				PendingDecrypt request = it.next();
+				it.remove();
+
+				if (!request.isDone())
+					batch.add(request);
+			}
+
+			if (queue.isEmpty())
+				pending.remove(keyPair);
+		}
+
+		return batch;
+	}
+
+	/***************************************************************************
+	 * CLASS Task
+	 * -------------------------------------------------------------------------
+	 * A single request run by the executor. Cancelling it takes it out of
+	 * the executor queue, and with mayInterruptIfRunning set also interrupts
+	 * the worker running it.
+	 **************************************************************************/
+	private class Task<T> extends CompletableFuture<T> implements Runnable {
+
+		private final Callable<T> work;
+		private final Object runnerLock = new Object();
+		private Thread runner;
+
+		public Task(Callable<T> work) {
+			this.work = work;
+		}
+
+		public void run() {
+			synchronized (runnerLock) {
+				if (isDone())
+					return;
+				runner = Thread.currentThread();
+			}
+
+			try {
+				complete(work.call());
+			} catch (Throwable e) {
+				completeExceptionally(e);
+			} finally {
+				synchronized (runnerLock) {
+					runner = null;
+					// Drop an interrupt meant for this task only
+					Thread.interrupted();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+			if (cancelled) {
+				executor.remove(this);
+
+				synchronized (runnerLock) {
+					if (mayInterruptIfRunning && runner != null)
+						runner.interrupt();
+				}
+			}
+
+			return cancelled;
+		}
+	}
+
+	/***************************************************************************
+	 * CLASS PendingDecrypt
+	 * -------------------------------------------------------------------------
+	 * A decrypt request waiting to be picked up by a batch. The result is set
+	 * by the draining worker. Cancelling it takes it off the waiting list.
+	 **************************************************************************/
+	private class PendingDecrypt extends CompletableFuture<ArrayList<BigInt>> {
+
+		private final BigInt cipherText;
+		private final RabinPrivateKeyPair keyPair;
+
+		public PendingDecrypt(BigInt cipherText, RabinPrivateKeyPair keyPair) {
+			this.cipherText = cipherText;
+			this.keyPair    = keyPair;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+			if (cancelled) {
+				synchronized (pending) {
+					LinkedList<PendingDecrypt> queue = pending.get(keyPair);
+
+					if (queue != null && queue.remove(this) && queue.isEmpty())
+						pending.remove(keyPair);
+				}
+			}
+
+			return cancelled;
+		}
+	}
+
+	/***************************************************************************
+	 * CLASS WorkerFactory
+	 * -------------------------------------------------------------------------
+	 * Names the worker threads and marks them as daemons so an idle pool does
+	 * not keep the JVM alive.
+	 **************************************************************************/
+	private static class WorkerFactory implements ThreadFactory {
+
+		private static final AtomicInteger poolCount = new AtomicInteger();
+		private final int pool = poolCount.incrementAndGet();
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		public Thread newThread(Runnable work) {
+			Thread thread = new Thread(work, "rabin-crypto-" + pool + "-"
+					+ threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
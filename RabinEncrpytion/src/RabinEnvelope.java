@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * PROGRAMMER : Eric Olaveson
+ * DATE       : October 19, 2026
+ * FILE       : RabinEnvelope.java
+ ******************************************************************************/
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/*******************************************************************************
+ * CLASS RabinEnvelope
+ * -----------------------------------------------------------------------------
+ * This class encrypts bulk data with a hybrid scheme. Rabin encryption is
+ * only used once per envelope, to encapsulate a random seed from which the
+ * session key is derived. The payload itself is streamed segment by segment
+ * through the JDK's AES-GCM, so throughput is bounded by the symmetric
+ * cipher rather than by BigMod. The
+ * session keys can be no stronger than the Rabin modulus protecting them.
+ *
+ * Envelope layout (all integers big-endian):
+ *
+ *    MAGIC "RABE" | VERSION (1) | salt (16) | capsule length (2) | capsule |
+ *    check (16) | segment*
+ *
+ *    segment : header (4) | ciphertext | GCM tag (16)
+ *
+ * The salt is fresh random bytes mixed into the derived key, so the key stays
+ * unique per envelope even if two envelopes share a seed under a small
+ * modulus. The capsule is the Rabin ciphertext of the seed.
+ * The check value picks out the seed from the four square roots returned by
+ * RabinCrypto.decrypt. The segment header holds the ciphertext length, with
+ * the top bit set on the last segment so truncated envelopes are detected.
+ * Each segment is sealed with a 96-bit GCM nonce built from its segment
+ * number, and its header is passed in as additional authenticated data, so
+ * segments can be neither altered, reordered nor have their flag changed.
+ ******************************************************************************/
+public class RabinEnvelope {
+
+	/***************************************************************************
+	 * CONSTANTS
+	 * -------------------------------------------------------------------------
+	 * MAGIC        : Bytes that open every envelope
+	 * VERSION      : Envelope format version
+	 * SALT_LENGTH  : Bytes of the random per-envelope salt
+	 * SEGMENT_SIZE : Most plaintext bytes carried by a single segment
+	 * CHECK_LENGTH : Bytes of the seed check value
+	 * TAG_LENGTH   : Bytes of each segment GCM tag
+	 * FINAL_FLAG   : Segment header bit marking the last segment
+	 **************************************************************************/
+	private static final byte[] MAGIC = { 'R', 'A', 'B', 'E' };
+	private static final int VERSION = 3;
+	private static final int SALT_LENGTH = 16;
+	private static final int SEGMENT_SIZE = 64 * 1024;
+	private static final int CHECK_LENGTH = 16;
+	private static final int TAG_LENGTH = 16;
+	private static final int FINAL_FLAG = 0x80000000;
+
+	private static final SecureRandom random = new SecureRandom();
+
+	/***************************************************************************
+	 * METHOD encrypt
+	 * -------------------------------------------------------------------------
+	 * This method reads the plaintext stream to its end and writes an
+	 * envelope for it, encrypted to the given public key, to the output. The
+	 * output stream is not closed.
+	 **************************************************************************/
+	public static void encrypt(InputStream plainText, OutputStream envelope,
+							   BigInt publicKey)
+			throws IOException, GeneralSecurityException {
+		DataOutputStream out = new DataOutputStream(envelope);
+		int seedLength = byteLength(publicKey);
+		BigInt seed = randomSeed(publicKey);
+		byte[] seedBytes = toBytes(seed, seedLength);
+		byte[] capsule = toBytes(RabinCrypto.encrypt(seed, publicKey),
+								 seedLength);
+		byte[] salt = new byte[SALT_LENGTH];
+		SessionKeys keys;
+
+		random.nextBytes(salt);
+		keys = new SessionKeys(salt, seedBytes);
+
+		// WRITE - envelope header
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		out.write(salt);
+		out.writeShort(capsule.length);
+		out.write(capsule);
+		out.write(keys.check);
+
+		// WRITE - payload one segment at a time
+		byte[] buffer = new byte[SEGMENT_SIZE];
+		byte[] next = new byte[SEGMENT_SIZE];
+		int length = readFully(plainText, buffer);
+		long segment = 0;
+		boolean last;
+
+		do {
+			int nextLength = length < SEGMENT_SIZE ? -1
+					: readFully(plainText, next);
+			last = nextLength <= 0;
+
+			int header = length | (last ? FINAL_FLAG : 0);
+			Cipher cipher = keys.segmentCipher(Cipher.ENCRYPT_MODE,
+											   segment++, header);
+
+			out.writeInt(header);
+			out.write(cipher.doFinal(buffer, 0, length));
+
+			byte[] swap = buffer;
+			buffer = next;
+			next = swap;
+			length = nextLength;
+		} while (!last);
+
+		out.flush();
+	}
+
+	/***************************************************************************
+	 * METHOD decrypt
+	 * -------------------------------------------------------------------------
+	 * This method reads an envelope from the input and writes the recovered
+	 * plaintext to the output. Each segment is only written once its GCM tag
+	 * has been verified. A GeneralSecurityException is thrown if the envelope was
+	 * not made for this key pair or has been altered or truncated. The output
+	 * stream is not closed.
+	 **************************************************************************/
+	public static void decrypt(InputStream envelope, OutputStream plainText,
+							   RabinPrivateKeyPair keyPair)
+			throws IOException, GeneralSecurityException {
+		DataInputStream in = new DataInputStream(envelope);
+		BigInt publicKey = keyPair.getP().multiply(keyPair.getQ());
+		int seedLength = byteLength(publicKey);
+		byte[] magic = new byte[MAGIC.length];
+
+		// READ - envelope header
+		in.readFully(magic);
+		if (!Arrays.equals(magic, MAGIC))
+			throw new IOException("Not a Rabin envelope");
+
+		if (in.readUnsignedByte() != VERSION)
+			throw new IOException("Unsupported envelope version");
+
+		byte[] salt = new byte[SALT_LENGTH];
+		in.readFully(salt);
+
+		byte[] capsule = new byte[in.readUnsignedShort()];
+		if (capsule.length != seedLength)
+			throw new GeneralSecurityException("Envelope is for another key");
+		in.readFully(capsule);
+
+		byte[] check = new byte[CHECK_LENGTH];
+		in.readFully(check);
+
+		// FIND - the square root whose check value matches
+		SessionKeys keys = null;
+		ArrayList<BigInt> roots =
+			RabinCrypto.decrypt(new BigInt(new BigInteger(1, capsule)), keyPair);
+
+		for (BigInt root : roots) {
+			SessionKeys candidate = new SessionKeys(salt,
+					toBytes(root, seedLength));
+
+			if (MessageDigest.isEqual(candidate.check, check)) {
+				keys = candidate;
+				break;
+			}
+		}
+
+		if (keys == null)
+			throw new GeneralSecurityException("Envelope is for another key");
+
+		// READ - payload one segment at a time
+		long segment = 0;
+		boolean last;
+
+		do {
+			int header = in.readInt();
+			int length = header & ~FINAL_FLAG;
+			last = (header & FINAL_FLAG) != 0;
+
+			if (length > SEGMENT_SIZE)
+				throw new IOException("Corrupt envelope segment");
+
+			byte[] cipherText = new byte[length + TAG_LENGTH];
+			in.readFully(cipherText);
+
+			// Throws AEADBadTagException if the segment was altered
+			Cipher cipher = keys.segmentCipher(Cipher.DECRYPT_MODE,
+											   segment++, header);
+			plainText.write(cipher.doFinal(cipherText));
+		} while (!last);
+
+		plainText.flush();
+	}
+
+	/***************************************************************************
+	 * METHOD encrypt
+	 * -------------------------------------------------------------------------
+	 * Convenience form of encrypt for data which is already in memory.
+	 **************************************************************************/
+	public static byte[] encrypt(byte[] plainText, BigInt publicKey)
+			throws GeneralSecurityException {
+		ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+
+		try {
+			encrypt(new ByteArrayInputStream(plainText), envelope, publicKey);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return envelope.toByteArray();
+	}
+
+	/***************************************************************************
+	 * METHOD decrypt
+	 * -------------------------------------------------------------------------
+	 * Convenience form of decrypt for envelopes which are already in memory.
+	 **************************************************************************/
+	public static byte[] decrypt(byte[] envelope, RabinPrivateKeyPair keyPair)
+			throws GeneralSecurityException {
+		ByteArrayOutputStream plainText = new ByteArrayOutputStream();
+
+		try {
+			decrypt(new ByteArrayInputStream(envelope), plainText, keyPair);
+		} catch (EOFException e) {
+			throw new GeneralSecurityException("Envelope is truncated", e);
+		} catch (IOException e) {
+			throw new GeneralSecurityException(e.getMessage(), e);
+		}
+
+		return plainText.toByteArray();
+	}
+
+	/***************************************************************************
+	 * METHOD randomSeed
+	 * -------------------------------------------------------------------------
+	 * Picks a random seed in the range [2, publicKey) from a SecureRandom.
+	 **************************************************************************/
+	private static BigInt randomSeed(BigInt publicKey) {
+		BigInteger seed;
+
+		do {
+			seed = new BigInteger(publicKey.bitLength(), random);
+		} while (seed.compareTo(BigInteger.valueOf(2)) < 0
+			  || seed.compareTo(publicKey) >= 0);
+
+		return new BigInt(seed);
+	}
+
+	/***************************************************************************
+	 * METHOD readFully
+	 * -------------------------------------------------------------------------
+	 * Reads until the buffer is full or the stream ends, returning the number
+	 * of bytes read.
+	 **************************************************************************/
+	private static int readFully(InputStream in, byte[] buffer)
+			throws IOException {
+		int total = 0;
+		int count;
+
+		while (total < buffer.length
+				&& (count = in.read(buffer, total, buffer.length - total)) > 0)
+			total += count;
+
+		return total;
+	}
+
+	/***************************************************************************
+	 * METHOD byteLength
+	 * -------------------------------------------------------------------------
+	 * Returns the number of bytes needed to hold any value below the modulus.
+	 **************************************************************************/
+	private static int byteLength(BigInt modulus) {
+		return (modulus.bitLength() + 7) / 8;
+	}
+
+	/***************************************************************************
+	 * METHOD toBytes
+	 * -------------------------------------------------------------------------
+	 * Encodes a non-negative integer as an unsigned big-endian array of
+	 * exactly the given length.
+	 **************************************************************************/
+	private static byte[] toBytes(BigInteger value, int length) {
+		byte[] raw = value.toByteArray();
+		byte[] bytes = new byte[length];
+		int copy = Math.min(raw.length, length);
+
+		System.arraycopy(raw, raw.length - copy, bytes, length - copy, copy);
+
+		return bytes;
+	}
+
+	/***************************************************************************
+	 * CLASS SessionKeys
+	 * -------------------------------------------------------------------------
+	 * The symmetric state derived from an envelope salt and seed: the AES key
+	 * and the seed check value. Each value is taken from SHA-256 of a
+	 * distinct label byte, the salt and then the seed. The one cipher is
+	 * re-initialised with a fresh nonce for every segment.
+	 **************************************************************************/
+	private static class SessionKeys {
+
+		private final byte[] check;
+		private final SecretKeySpec key;
+		private final Cipher cipher;
+
+		public SessionKeys(byte[] salt, byte[] seed)
+				throws GeneralSecurityException {
+			this.key    = new SecretKeySpec(
+				Arrays.copyOf(derive(1, salt, seed), 16), "AES");
+			this.check  = Arrays.copyOf(derive(2, salt, seed), CHECK_LENGTH);
+			this.cipher = Cipher.getInstance("AES/GCM/NoPadding");
+		}
+
+		public Cipher segmentCipher(int mode, long segment, int header)
+				throws GeneralSecurityException {
+			byte[] nonce = new byte[12];
+			byte[] aad = new byte[4];
+
+			for (int i = 0; i < 8; ++i)
+				nonce[4 + i] = (byte) (segment >>> (56 - 8 * i));
+			for (int i = 0; i < 4; ++i)
+				aad[i] = (byte) (header >>> (24 - 8 * i));
+
+			cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+			cipher.updateAAD(aad);
+
+			return cipher;
+		}
+
+		private static byte[] derive(int label, byte[] salt, byte[] seed)
+				throws GeneralSecurityException {
+			MessageDigest sha = MessageDigest.getInstance("SHA-256");
+
+			sha.update((byte) label);
+			sha.update(salt);
+			sha.update(seed);
+
+			return sha.digest();
+		}
+	}
+}